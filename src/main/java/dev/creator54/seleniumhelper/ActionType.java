@@ -0,0 +1,12 @@
+package dev.creator54.seleniumhelper;
+
+/**
+ * Kinds of wrapped actions that can be given their own {@link RetryPolicy}.
+ */
+public enum ActionType {
+	NAVIGATE,
+	FIND,
+	CLICK,
+	SEND_KEYS,
+	SWITCH
+}
@@ -0,0 +1,75 @@
+package dev.creator54.seleniumhelper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Tracks consecutive failed attempts per page. Once a page reaches the failure threshold the circuit
+ * opens and actions on that page fail fast without retrying until the open period has elapsed.
+ */
+public class CircuitBreaker {
+	private static final Logger logger = LogManager.getLogger(CircuitBreaker.class);
+
+	private final int failureThreshold;
+	private final long openMillis;
+	private final Map<String, State> states = new ConcurrentHashMap<>();
+
+	private static final class State {
+		private int consecutiveFailures;
+		private long openedAt;
+	}
+
+	public CircuitBreaker(int failureThreshold, long openMillis) {
+		this.failureThreshold = failureThreshold;
+		this.openMillis = openMillis;
+	}
+
+	// A threshold of 0 or less disables the breaker
+	public boolean isOpen(String page) {
+		if (failureThreshold <= 0) {
+			return false;
+		}
+		State state = states.get(page);
+		if (state == null) {
+			return false;
+		}
+		synchronized (state) {
+			if (state.consecutiveFailures < failureThreshold) {
+				return false;
+			}
+			if (System.currentTimeMillis() - state.openedAt >= openMillis) {
+				// Half-open: allow attempts again, a single further failure reopens the circuit
+				state.consecutiveFailures = failureThreshold - 1;
+				logger.info("Circuit half-open for page: {}", page);
+				return false;
+			}
+			return true;
+		}
+	}
+
+	public void recordFailure(String page) {
+		if (failureThreshold <= 0) {
+			return;
+		}
+		State state = states.computeIfAbsent(page, key -> new State());
+		synchronized (state) {
+			state.consecutiveFailures++;
+			if (state.consecutiveFailures == failureThreshold) {
+				state.openedAt = System.currentTimeMillis();
+				logger.warn("Circuit opened for page {} after {} consecutive failures", page, failureThreshold);
+			}
+		}
+	}
+
+	public void recordSuccess(String page) {
+		State state = states.get(page);
+		if (state != null) {
+			synchronized (state) {
+				state.consecutiveFailures = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,355 @@
+package dev.creator54.seleniumhelper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+
+/**
+ * Captures the serialised DOM to gzip files without holding the whole document in the JVM.
+ * <p>
+ * The document is serialised once in the browser and read back in chunks, one script call per chunk.
+ * A baseline snapshot is the plain HTML, gzipped. Later snapshots can be stored as a diff against a
+ * baseline: the HTML is split into tokens ending at each {@code >} and written as records that either
+ * copy a run of baseline tokens ({@code C <start> <count>}) or carry new text ({@code L <length>}
+ * followed by the text). Only 64-bit token hashes of the baseline are kept in memory.
+ */
+public class DomSnapshotter {
+	private static final Logger logger = LogManager.getLogger(DomSnapshotter.class);
+
+	private static final String SERIALIZE_SCRIPT = """
+			window.__seleniumHelperDom = document.documentElement.outerHTML;
+			return window.__seleniumHelperDom.length;
+			""";
+	// Never ends a chunk between the two halves of a surrogate pair
+	private static final String CHUNK_SCRIPT = """
+			var dom = window.__seleniumHelperDom, start = arguments[0], end = start + arguments[1];
+			if (dom === undefined) return null;
+			var code = dom.charCodeAt(end - 1);
+			if (end < dom.length && code >= 0xD800 && code <= 0xDBFF) end--;
+			return dom.substring(start, end);
+			""";
+	private static final String CLEANUP_SCRIPT = "delete window.__seleniumHelperDom;";
+
+	private final JavascriptExecutor executor;
+	private final int chunkSize;
+
+	/**
+	 * Token hashes of a baseline snapshot. Tokens that occur once in the baseline are indexed so a diff
+	 * can resynchronise on them after an insertion or deletion.
+	 */
+	public static final class Baseline {
+		private final File file;
+		private long[] hashes = new long[1024];
+		private int size;
+		private final Map<Long, Integer> uniquePositions = new HashMap<>();
+
+		private Baseline(File file) {
+			this.file = file;
+		}
+
+		private void add(String token) {
+			long hash = hash(token);
+			if (size == hashes.length) {
+				hashes = Arrays.copyOf(hashes, size * 2);
+			}
+			// -1 marks a token that occurs more than once
+			uniquePositions.merge(hash, size, (previous, current) -> -1);
+			hashes[size++] = hash;
+		}
+
+		/**
+		 * Reads the token hashes of a baseline written by an earlier capture, for example in another JVM.
+		 */
+		public static Baseline load(File file) throws IOException {
+			Baseline baseline = new Baseline(file);
+			readTokens(file, baseline::add);
+			logger.info("DOM baseline loaded: {} ({} tokens)", file.getAbsolutePath(), baseline.getTokenCount());
+			return baseline;
+		}
+
+		public File getFile() {
+			return file;
+		}
+
+		public int getTokenCount() {
+			return size;
+		}
+	}
+
+	public record DiffResult(File file, int copiedTokens, int changedTokens) {
+	}
+
+	public DomSnapshotter(JavascriptExecutor executor, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		}
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Writes the full document to a gzip file and returns it as a baseline for later diffs.
+	 */
+	public Baseline captureBaseline(File outputFile) throws IOException {
+		Baseline baseline = new Baseline(outputFile);
+		Tokenizer tokenizer = new Tokenizer(baseline::add);
+
+		try (Writer writer = gzipWriter(outputFile)) {
+			streamDom(chunk -> {
+				writer.write(chunk);
+				tokenizer.accept(chunk);
+			});
+			tokenizer.finish();
+		}
+
+		logger.info("DOM baseline saved: {} ({} tokens)", outputFile.getAbsolutePath(), baseline.getTokenCount());
+		return baseline;
+	}
+
+	/**
+	 * Writes the current document to a gzip file as a diff against the baseline.
+	 */
+	public DiffResult captureDiff(Baseline baseline, File outputFile) throws IOException {
+		int copied;
+		int changed;
+		try (Writer writer = gzipWriter(outputFile)) {
+			DiffWriter diff = new DiffWriter(baseline, writer);
+			Tokenizer tokenizer = new Tokenizer(diff::accept);
+			try {
+				streamDom(tokenizer::accept);
+				tokenizer.finish();
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			diff.finish();
+			copied = diff.copied;
+			changed = diff.changed;
+		}
+
+		logger.info("DOM diff saved: {} ({} tokens copied, {} changed)", outputFile.getAbsolutePath(), copied,
+				changed);
+		return new DiffResult(outputFile, copied, changed);
+	}
+
+	/**
+	 * Rebuilds the document of a diff snapshot. Unlike capturing, this reads the baseline tokens into memory.
+	 */
+	public static void restore(File baselineFile, File diffFile, Writer output) throws IOException {
+		List<String> tokens = new ArrayList<>();
+		readTokens(baselineFile, tokens::add);
+
+		try (BufferedReader reader = new BufferedReader(gzipReader(diffFile))) {
+			String header;
+			while ((header = reader.readLine()) != null) {
+				String[] parts = header.split(" ");
+				if (parts[0].equals("C")) {
+					int start = Integer.parseInt(parts[1]);
+					int count = Integer.parseInt(parts[2]);
+					for (int i = start; i < start + count; i++) {
+						output.write(tokens.get(i));
+					}
+				} else if (parts[0].equals("L")) {
+					char[] text = new char[Integer.parseInt(parts[1])];
+					int offset = 0;
+					while (offset < text.length) {
+						int read = reader.read(text, offset, text.length - offset);
+						if (read == -1) {
+							throw new IOException("Truncated DOM diff: " + diffFile);
+						}
+						offset += read;
+					}
+					output.write(text);
+				} else {
+					throw new IOException("Invalid DOM diff record '" + header + "' in " + diffFile);
+				}
+			}
+		}
+	}
+
+	private static void readTokens(File baselineFile, Consumer<String> sink) throws IOException {
+		Tokenizer tokenizer = new Tokenizer(sink);
+		try (Reader reader = gzipReader(baselineFile)) {
+			char[] buffer = new char[8192];
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				tokenizer.accept(new String(buffer, 0, read));
+			}
+			tokenizer.finish();
+		}
+	}
+
+	private interface ChunkConsumer {
+		void accept(String chunk) throws IOException;
+	}
+
+	private void streamDom(ChunkConsumer consumer) throws IOException {
+		long length = ((Number) executor.executeScript(SERIALIZE_SCRIPT)).longValue();
+		try {
+			long offset = 0;
+			while (offset < length) {
+				Object chunk = executor.executeScript(CHUNK_SCRIPT, offset, chunkSize);
+				if (!(chunk instanceof String text) || text.isEmpty()) {
+					throw new IOException("Document changed while reading the DOM snapshot");
+				}
+				consumer.accept(text);
+				offset += text.length();
+			}
+		} finally {
+			try {
+				executor.executeScript(CLEANUP_SCRIPT);
+			} catch (RuntimeException e) {
+				// The page may have navigated away or the driver died, keep the original failure
+				logger.warn("Failed to release the serialised DOM: {}", e.getMessage());
+			}
+		}
+	}
+
+	private static Writer gzipWriter(File file) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs()) {
+			throw new IOException("Failed to create output directory: " + parent);
+		}
+		return new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)),
+				StandardCharsets.UTF_8));
+	}
+
+	private static Reader gzipReader(File file) throws IOException {
+		return new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8);
+	}
+
+	// 64-bit FNV-1a over the characters of the token
+	private static long hash(String token) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < token.length(); i++) {
+			hash ^= token.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	// Splits streamed text into tokens ending at '>', carrying partial tokens across chunks
+	private static final class Tokenizer {
+		private final Consumer<String> sink;
+		private final StringBuilder pending = new StringBuilder();
+
+		private Tokenizer(Consumer<String> sink) {
+			this.sink = sink;
+		}
+
+		private void accept(String chunk) {
+			int from = 0;
+			int end;
+			while ((end = chunk.indexOf('>', from)) != -1) {
+				pending.append(chunk, from, end + 1);
+				sink.accept(pending.toString());
+				pending.setLength(0);
+				from = end + 1;
+			}
+			pending.append(chunk, from, chunk.length());
+		}
+
+		private void finish() {
+			if (pending.length() > 0) {
+				sink.accept(pending.toString());
+				pending.setLength(0);
+			}
+		}
+	}
+
+	private final class DiffWriter {
+		private final Baseline baseline;
+		private final Writer writer;
+		private final StringBuilder literal = new StringBuilder();
+		private int cursor;
+		private int runStart = -1;
+		private int runCount;
+		private int copied;
+		private int changed;
+
+		private DiffWriter(Baseline baseline, Writer writer) {
+			this.baseline = baseline;
+			this.writer = writer;
+		}
+
+		// Used as a token consumer, so I/O failures are rethrown unchecked and unwrapped in captureDiff
+		private void accept(String token) {
+			try {
+				long hash = hash(token);
+				int position = -1;
+				if (cursor < baseline.size && baseline.hashes[cursor] == hash) {
+					position = cursor;
+				} else {
+					Integer unique = baseline.uniquePositions.get(hash);
+					if (unique != null && unique >= 0) {
+						position = unique;
+					}
+				}
+
+				if (position < 0) {
+					flushRun();
+					literal.append(token);
+					changed++;
+					if (literal.length() >= chunkSize) {
+						flushLiteral();
+					}
+					return;
+				}
+
+				flushLiteral();
+				if (runStart >= 0 && runStart + runCount == position) {
+					runCount++;
+				} else {
+					flushRun();
+					runStart = position;
+					runCount = 1;
+				}
+				cursor = position + 1;
+				copied++;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void finish() throws IOException {
+			flushLiteral();
+			flushRun();
+		}
+
+		private void flushRun() throws IOException {
+			if (runStart >= 0) {
+				writer.write("C " + runStart + " " + runCount + "\n");
+				runStart = -1;
+				runCount = 0;
+			}
+		}
+
+		private void flushLiteral() throws IOException {
+			if (literal.length() > 0) {
+				writer.write("L " + literal.length() + "\n");
+				writer.append(literal);
+				literal.setLength(0);
+			}
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package dev.creator54.seleniumhelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+
+/**
+ * An executable plan compiled from a flow in the JSON configuration.
+ * <p>
+ * A flow is an array of steps stored under {@code flows#<name>}, for example
+ * {@code {"action": "type", "locator": "login#user", "value": "admin"}}. Supported actions are
+ * {@code navigate}, {@code click}, {@code type} and {@code assert}.
+ * <p>
+ * Locators are resolved once at compile time, repeated navigation to the same URL is dropped and
+ * consecutive assertions on CSS or XPath locators are merged into a single batched read.
+ */
+public class FlowPlan {
+	private static final Logger logger = LogManager.getLogger(FlowPlan.class);
+
+	private enum Action {
+		NAVIGATE,
+		CLICK,
+		TYPE,
+		ASSERT
+	}
+
+	private record Step(Action action, String path, By locator, String value) {
+	}
+
+	// Each operation is either a single step or a batch of assertions read in one script call
+	private record Operation(Step step, List<Step> assertions) {
+	}
+
+	private final String name;
+	private final List<Operation> operations;
+	private final int stepCount;
+
+	private FlowPlan(String name, List<Operation> operations, int stepCount) {
+		this.name = name;
+		this.operations = operations;
+		this.stepCount = stepCount;
+	}
+
+	public static FlowPlan compile(JSONHelper jsonHelper, String name) {
+		List<Map<String, String>> definitions = jsonHelper.getObjectList("flows#" + name);
+		List<Step> steps = new ArrayList<>(definitions.size());
+
+		String lastUrl = null;
+		for (int i = 0; i < definitions.size(); i++) {
+			Map<String, String> definition = definitions.get(i);
+			Action action = parseAction(name, i, definition.get("action"));
+			String path = definition.get("locator");
+			String value = definition.get("value");
+
+			if (action == Action.NAVIGATE) {
+				requireField(name, i, "value", value);
+				if (value.equals(lastUrl)) {
+					logger.info("Flow '{}' step {}: dropping repeated navigation to {}", name, i, value);
+					continue;
+				}
+				lastUrl = value;
+				steps.add(new Step(action, null, null, value));
+				continue;
+			}
+
+			requireField(name, i, "locator", path);
+			if (action != Action.CLICK) {
+				requireField(name, i, "value", value);
+			}
+			// Clicks and typing may navigate, so a later navigate to the same URL is no longer redundant
+			if (action != Action.ASSERT) {
+				lastUrl = null;
+			}
+			steps.add(new Step(action, path, jsonHelper.get(path), value));
+		}
+
+		List<Operation> operations = new ArrayList<>();
+		List<Step> pending = new ArrayList<>();
+		for (Step step : steps) {
+			if (step.action() == Action.ASSERT && ScriptLocators.isScriptable(step.locator())) {
+				pending.add(step);
+				continue;
+			}
+			flushAssertions(operations, pending);
+			operations.add(new Operation(step, null));
+		}
+		flushAssertions(operations, pending);
+
+		logger.info("Compiled flow '{}': {} steps into {} operations", name, definitions.size(), operations.size());
+		return new FlowPlan(name, operations, definitions.size());
+	}
+
+	public void run(SeleniumHelper seleniumHelper) {
+		logger.info("Running flow '{}'", name);
+		for (Operation operation : operations) {
+			if (operation.assertions() != null) {
+				runAssertions(seleniumHelper, operation.assertions());
+				continue;
+			}
+
+			Step step = operation.step();
+			switch (step.action()) {
+				case NAVIGATE -> seleniumHelper.get(step.value());
+				case CLICK -> seleniumHelper.clickElement(step.locator());
+				case TYPE -> seleniumHelper.sendKeysToElement(step.locator(), step.value());
+				case ASSERT -> runAssertions(seleniumHelper, List.of(step));
+			}
+		}
+		logger.info("Flow '{}' completed", name);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getStepCount() {
+		return stepCount;
+	}
+
+	public int getOperationCount() {
+		return operations.size();
+	}
+
+	private void runAssertions(SeleniumHelper seleniumHelper, List<Step> assertions) {
+		List<String> actual;
+		if (assertions.size() == 1) {
+			// findElement reports a missing element itself instead of turning it into a text mismatch
+			actual = List.of(seleniumHelper.findElement(assertions.get(0).locator()).getText());
+		} else {
+			List<By> locators = new ArrayList<>(assertions.size());
+			for (Step step : assertions) {
+				locators.add(step.locator());
+			}
+			actual = seleniumHelper.getTexts(locators);
+		}
+
+		for (int i = 0; i < assertions.size(); i++) {
+			Step step = assertions.get(i);
+			String actualText = actual.get(i) == null ? "" : actual.get(i).trim();
+			if (!actualText.equals(step.value().trim())) {
+				logger.error("Flow '{}' assertion failed for '{}'. Expected: '{}', Actual: '{}'", name, step.path(),
+						step.value(), actualText);
+				throw new RuntimeException("Flow '" + name + "' assertion failed for '" + step.path() + "'. "
+						+ "Expected: '" + step.value() + "', Actual: '" + actualText + "'");
+			}
+		}
+	}
+
+	private static void flushAssertions(List<Operation> operations, List<Step> pending) {
+		if (pending.isEmpty()) {
+			return;
+		}
+		if (pending.size() == 1) {
+			operations.add(new Operation(pending.get(0), null));
+		} else {
+			operations.add(new Operation(null, List.copyOf(pending)));
+		}
+		pending.clear();
+	}
+
+	private static Action parseAction(String name, int index, String action) {
+		requireField(name, index, "action", action);
+		return switch (action.toLowerCase()) {
+			case "navigate" -> Action.NAVIGATE;
+			case "click" -> Action.CLICK;
+			case "type" -> Action.TYPE;
+			case "assert" -> Action.ASSERT;
+			default -> {
+				logger.error("Invalid action '{}' in flow '{}' step {}", action, name, index);
+				throw new IllegalArgumentException("Invalid flow action: " + action);
+			}
+		};
+	}
+
+	private static void requireField(String name, int index, String field, String value) {
+		if (value == null) {
+			logger.error("Flow '{}' step {} is missing '{}'", name, index, field);
+			throw new IllegalArgumentException("Flow '" + name + "' step " + index + " is missing '" + field + "'");
+		}
+	}
+}
@@ -3,11 +3,17 @@ package dev.creator54.seleniumhelper;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
@@ -15,69 +21,147 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 
 public class JSONHelper {
-	private static String LOCATORS_FILE_PATH = "config.json";
+	private static final String DEFAULT_FILE_PATH = "config.json";
 	private static final Logger logger = LogManager.getLogger(JSONHelper.class);
+	// Parsed configs shared by all instances, keyed by absolute path. Entries are never modified after
+	// parsing, so concurrent readers need no further locking.
+	private static final Map<String, JSONObject> CONFIGS = new ConcurrentHashMap<>();
+
+	private final String filePath;
 
 	public JSONHelper() {
+		this(DEFAULT_FILE_PATH);
 	}
 
 	public JSONHelper(String filePath) {
-		LOCATORS_FILE_PATH = filePath;
+		this.filePath = Path.of(filePath).toAbsolutePath().normalize().toString();
+	}
+
+	public String getFilePath() {
+		return filePath;
+	}
+
+	// Drops the cached config so the next read parses the file again
+	public void reload() {
+		CONFIGS.remove(filePath);
+		logger.info("Cleared cached config: {}", filePath);
+	}
+
+	private JSONObject load() {
+		JSONObject config = CONFIGS.get(filePath);
+		if (config != null) {
+			return config;
+		}
+		return CONFIGS.computeIfAbsent(filePath, path -> {
+			JSONParser parser = new JSONParser();
+			try (FileReader reader = new FileReader(path)) {
+				logger.info("Loading config: {}", path);
+				return (JSONObject) parser.parse(reader);
+			} catch (IOException | ParseException e) {
+				logger.error("Error reading JSON file: {}", e.getMessage());
+				throw new RuntimeException(e);
+			}
+		});
 	}
 
 	public String getValue(String name) {
-		JSONParser parser = new JSONParser();
-
-		try (FileReader reader = new FileReader(LOCATORS_FILE_PATH)) {
-			JSONObject jsonObject = (JSONObject) parser.parse(reader);
-			ArrayList<String> parts = new ArrayList<>(List.of(name.split("#")));
-			String lastPart = parts.get(parts.size() - 1);
-
-			JSONObject nestedObject = traverseJsonObject(parts, jsonObject);
-
-			if (nestedObject != null) {
-				if (nestedObject.containsKey(lastPart)) {
-					Object value = nestedObject.get(lastPart);
-
-					// Check if the value is a string
-					if (value instanceof String stringValue) {
-						logger.info("Retrieved value for JSONPath '{}': {}", name, stringValue);
-						return stringValue;
-					} else {
-						logger.error("JSON path '{}' does not resolve to a valid string value", name);
-						throw new IllegalArgumentException("JSON path does not resolve to a valid string value");
-					}
+		JSONObject jsonObject = load();
+		ArrayList<String> parts = new ArrayList<>(List.of(name.split("#")));
+		String lastPart = parts.get(parts.size() - 1);
+
+		JSONObject nestedObject = traverseJsonObject(parts, jsonObject);
+
+		if (nestedObject != null) {
+			if (nestedObject.containsKey(lastPart)) {
+				Object value = nestedObject.get(lastPart);
+
+				// Check if the value is a string
+				if (value instanceof String stringValue) {
+					logger.info("Retrieved value for JSONPath '{}': {}", name, stringValue);
+					return stringValue;
 				} else {
-					logger.error("Locator not found for JSON path: '{}'", name);
-					throw new IllegalArgumentException("Locator not found for JSON path: " + name);
+					logger.error("JSON path '{}' does not resolve to a valid string value", name);
+					throw new IllegalArgumentException("JSON path does not resolve to a valid string value");
 				}
+			} else {
+				logger.error("Locator not found for JSON path: '{}'", name);
+				throw new IllegalArgumentException("Locator not found for JSON path: " + name);
 			}
-
-			logger.error("Invalid JSON path: '{}'", name);
-			throw new IllegalArgumentException("Invalid JSON path: " + name);
-		} catch (IOException | ParseException e) {
-			logger.error("Error reading JSON file: {}", e.getMessage());
-			throw new RuntimeException(e);
 		}
+
+		logger.error("Invalid JSON path: '{}'", name);
+		throw new IllegalArgumentException("Invalid JSON path: " + name);
 	}
 	public List<String> getValues(String path) {
-		JSONParser parser = new JSONParser();
+		JSONObject jsonObject = load();
+		ArrayList<String> parts = new ArrayList<>(List.of(path.split("#")));
 
-		try (FileReader reader = new FileReader(LOCATORS_FILE_PATH)) {
-			JSONObject jsonObject = (JSONObject) parser.parse(reader);
-			ArrayList<String> parts = new ArrayList<>(List.of(path.split("#")));
+		JSONObject nestedObject = traverseJsonObject(parts, jsonObject);
 
-			JSONObject nestedObject = traverseJsonObject(parts, jsonObject);
+		if (nestedObject != null) {
+			return getValuesFromNestedObject(nestedObject);
+		} else {
+			throw new IllegalArgumentException("Invalid JSON path: " + path);
+		}
+	}
 
-			if (nestedObject != null) {
-				return getValuesFromNestedObject(nestedObject);
-			} else {
-				throw new IllegalArgumentException("Invalid JSON path: " + path);
+	// Returns the objects of the array at the given path, keeping only their string entries
+	public List<Map<String, String>> getObjectList(String path) {
+		JSONObject jsonObject = load();
+		ArrayList<String> parts = new ArrayList<>(List.of(path.split("#")));
+		String lastPart = parts.get(parts.size() - 1);
+
+		JSONObject nestedObject = traverseJsonObject(parts, jsonObject);
+		Object value = nestedObject.get(lastPart);
+		if (!(value instanceof JSONArray array)) {
+			logger.error("JSON path '{}' does not resolve to an array", path);
+			throw new IllegalArgumentException("JSON path does not resolve to an array: " + path);
+		}
+
+		List<Map<String, String>> objects = new ArrayList<>(array.size());
+		for (Object item : array) {
+			if (!(item instanceof JSONObject itemObject)) {
+				logger.error("JSON path '{}' contains a non-object entry", path);
+				throw new IllegalArgumentException("JSON path contains a non-object entry: " + path);
+			}
+			Map<String, String> values = new HashMap<>();
+			for (Object key : itemObject.keySet()) {
+				Object entry = itemObject.get(key);
+				if (entry instanceof String stringValue) {
+					values.put((String) key, stringValue);
+				}
 			}
-		} catch (IOException | ParseException e) {
-			logger.error("Error reading JSON file: {}", e.getMessage());
-			throw new RuntimeException(e);
+			objects.add(values);
 		}
+		logger.info("Retrieved {} objects for JSONPath '{}'", objects.size(), path);
+		return objects;
+	}
+
+	// Compiles the flow stored under flows#<name> into an executable plan
+	public FlowPlan compileFlow(String name) {
+		return FlowPlan.compile(this, name);
+	}
+
+	/**
+	 * Extracts the table described at the given path to a file. The object is expected to hold a
+	 * {@code rows} locator and a {@code columns} array of {@code {"name", "selector"}} objects, written
+	 * in declaration order.
+	 */
+	public long extractTable(String name, File outputFile, TableExtractor.Format format) {
+		By rowLocator = get(name + "#rows");
+		Map<String, String> columns = new LinkedHashMap<>();
+		for (Map<String, String> column : getObjectList(name + "#columns")) {
+			String columnName = column.get("name");
+			if (columnName == null) {
+				logger.error("Column without a name in JSON path '{}'", name + "#columns");
+				throw new IllegalArgumentException("Column without a name in JSON path: " + name + "#columns");
+			}
+			// A missing selector reads the row itself
+			columns.put(columnName, column.getOrDefault("selector", ""));
+		}
+
+		SeleniumHelper seleniumHelper = SeleniumHelper.getInstance(new SeleniumHelperOptions(this));
+		return seleniumHelper.extractTable(rowLocator, columns, outputFile, format);
 	}
 
 	private List<String> getValuesFromNestedObject(JSONObject jsonObject) {
@@ -143,97 +227,13 @@ public class JSONHelper {
 	}
 
 	public WebElement getElement(String name) {
-		String locatorType = getValue(name + "#type");
-		String locatorValue = getValue(name + "#locator");
-
-		SeleniumHelper seleniumHelper = SeleniumHelper.getInstance();
-		By locator = switch (locatorType.toLowerCase()) {
-			case "id" -> {
-				logger.info("Retrieved locator of type 'id' for JSON path '{}'", name);
-				yield By.id(locatorValue);
-			}
-			case "name" -> {
-				logger.info("Retrieved locator of type 'name' for JSON path '{}'", name);
-				yield By.name(locatorValue);
-			}
-			case "xpath" -> {
-				logger.info("Retrieved locator of type 'xpath' for JSON path '{}'", name);
-				yield By.xpath(locatorValue);
-			}
-			case "css" -> {
-				logger.info("Retrieved locator of type 'css' for JSON path '{}'", name);
-				yield By.cssSelector(locatorValue);
-			}
-			case "linktext" -> {
-				logger.info("Retrieved locator of type 'linktext' for JSON path '{}'", name);
-				yield By.linkText(locatorValue);
-			}
-			case "partiallinktext" -> {
-				logger.info("Retrieved locator of type 'partiallinktext' for JSON path '{}'", name);
-				yield By.partialLinkText(locatorValue);
-			}
-			case "tagname" -> {
-				logger.info("Retrieved locator of type 'tagname' for JSON path '{}'", name);
-				yield By.tagName(locatorValue);
-			}
-			case "classname" -> {
-				logger.info("Retrieved locator of type 'classname' for JSON path '{}'", name);
-				yield By.className(locatorValue);
-			}
-			default -> {
-				logger.error("Invalid locator type: '{}'", locatorType);
-				throw new IllegalArgumentException("Invalid locator type: " + locatorType);
-			}
-		};
-
-		return seleniumHelper.findElement(locator);
+		SeleniumHelper seleniumHelper = SeleniumHelper.getInstance(new SeleniumHelperOptions(this));
+		return seleniumHelper.getElement(this, name);
 	}
 
 	public List<WebElement> getElements(String name) {
-		String locatorType = getValue(name + "#type");
-		String locatorValue = getValue(name + "#locator");
-
-		SeleniumHelper seleniumHelper = SeleniumHelper.getInstance();
-		By locator = switch (locatorType.toLowerCase()) {
-			case "id" -> {
-				logger.info("Retrieved locator of type 'id' for JSON path '{}'", name);
-				yield By.id(locatorValue);
-			}
-			case "name" -> {
-				logger.info("Retrieved locator of type 'name' for JSON path '{}'", name);
-				yield By.name(locatorValue);
-			}
-			case "xpath" -> {
-				logger.info("Retrieved locator of type 'xpath' for JSON path '{}'", name);
-				yield By.xpath(locatorValue);
-			}
-			case "css" -> {
-				logger.info("Retrieved locator of type 'css' for JSON path '{}'", name);
-				yield By.cssSelector(locatorValue);
-			}
-			case "linktext" -> {
-				logger.info("Retrieved locator of type 'linktext' for JSON path '{}'", name);
-				yield By.linkText(locatorValue);
-			}
-			case "partiallinktext" -> {
-				logger.info("Retrieved locator of type 'partiallinktext' for JSON path '{}'", name);
-				yield By.partialLinkText(locatorValue);
-			}
-			case "tagname" -> {
-				logger.info("Retrieved locator of type 'tagname' for JSON path '{}'", name);
-				yield By.tagName(locatorValue);
-			}
-			case "classname" -> {
-				logger.info("Retrieved locator of type 'classname' for JSON path '{}'", name);
-				yield By.className(locatorValue);
-			}
-			default -> {
-				logger.error("Invalid locator type: '{}'", locatorType);
-				throw new IllegalArgumentException("Invalid locator type: " + locatorType);
-			}
-		};
-
-		return seleniumHelper.findElements(locator);
+		SeleniumHelper seleniumHelper = SeleniumHelper.getInstance(new SeleniumHelperOptions(this));
+		return seleniumHelper.getElements(this, name);
 	}
 
 	private JSONObject traverseJsonObject(ArrayList<String> parts, JSONObject jsonObject) {
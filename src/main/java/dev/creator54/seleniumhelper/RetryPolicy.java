@@ -0,0 +1,125 @@
+package dev.creator54.seleniumhelper;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.StaleElementReferenceException;
+
+/**
+ * Retry settings for a type of wrapped action. Failed attempts are retried only for the configured
+ * exception types, waiting an exponentially growing, jittered backoff between attempts.
+ */
+public class RetryPolicy {
+	private static final Logger logger = LogManager.getLogger(RetryPolicy.class);
+
+	private int maxAttempts;
+	private long initialBackoffMillis;
+	private long maxBackoffMillis;
+	private double backoffMultiplier;
+	private final Set<Class<? extends Throwable>> retryOn;
+
+	/**
+	 * Creates a policy with 3 attempts, 100ms initial backoff doubling up to 2s, retrying on
+	 * {@link StaleElementReferenceException} and {@link ElementClickInterceptedException}.
+	 */
+	public RetryPolicy() {
+		this.maxAttempts = 3;
+		this.initialBackoffMillis = 100;
+		this.maxBackoffMillis = 2000;
+		this.backoffMultiplier = 2.0;
+		this.retryOn = new LinkedHashSet<>(List.of(StaleElementReferenceException.class,
+				ElementClickInterceptedException.class));
+	}
+
+	// Policy that runs every action exactly once
+	public static RetryPolicy noRetry() {
+		RetryPolicy policy = new RetryPolicy();
+		policy.setMaxAttempts(1);
+		return policy;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public RetryPolicy setMaxAttempts(int maxAttempts) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+		}
+		this.maxAttempts = maxAttempts;
+		return this;
+	}
+
+	public long getInitialBackoffMillis() {
+		return initialBackoffMillis;
+	}
+
+	public RetryPolicy setInitialBackoffMillis(long initialBackoffMillis) {
+		if (initialBackoffMillis < 0) {
+			throw new IllegalArgumentException("initialBackoffMillis must not be negative: " + initialBackoffMillis);
+		}
+		this.initialBackoffMillis = initialBackoffMillis;
+		return this;
+	}
+
+	public long getMaxBackoffMillis() {
+		return maxBackoffMillis;
+	}
+
+	public RetryPolicy setMaxBackoffMillis(long maxBackoffMillis) {
+		if (maxBackoffMillis < 0) {
+			throw new IllegalArgumentException("maxBackoffMillis must not be negative: " + maxBackoffMillis);
+		}
+		this.maxBackoffMillis = maxBackoffMillis;
+		return this;
+	}
+
+	public double getBackoffMultiplier() {
+		return backoffMultiplier;
+	}
+
+	public RetryPolicy setBackoffMultiplier(double backoffMultiplier) {
+		if (backoffMultiplier < 1.0) {
+			throw new IllegalArgumentException("backoffMultiplier must be at least 1: " + backoffMultiplier);
+		}
+		this.backoffMultiplier = backoffMultiplier;
+		return this;
+	}
+
+	public Set<Class<? extends Throwable>> getRetryOn() {
+		return Set.copyOf(retryOn);
+	}
+
+	public RetryPolicy retryOn(Class<? extends Throwable> exceptionType) {
+		logger.debug("Adding retryable exception: {}", exceptionType.getName());
+		this.retryOn.add(exceptionType);
+		return this;
+	}
+
+	public boolean isRetryable(Throwable throwable) {
+		for (Class<? extends Throwable> type : retryOn) {
+			if (type.isInstance(throwable)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Backoff before the given retry (1 for the first retry), chosen at random between half and the
+	 * full exponential delay so that concurrent retries do not line up.
+	 */
+	public long backoffMillis(int retry) {
+		double delay = initialBackoffMillis * Math.pow(backoffMultiplier, retry - 1);
+		long capped = (long) Math.min(delay, maxBackoffMillis);
+		if (capped <= 1) {
+			return capped;
+		}
+		return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+	}
+}
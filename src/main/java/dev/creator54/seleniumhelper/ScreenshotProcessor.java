@@ -0,0 +1,181 @@
+package dev.creator54.seleniumhelper;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reduces screenshot size before it is written: downscales to a maximum width, re-encodes as JPEG
+ * at the configured quality and, in change-only mode, drops frames whose perceptual hash matches the
+ * previous frame.
+ */
+public class ScreenshotProcessor {
+	private static final Logger logger = LogManager.getLogger(ScreenshotProcessor.class);
+
+	private final SeleniumHelperOptions options;
+	private long previousHash;
+	private boolean hasPrevious;
+
+	public record Result(byte[] data, String extension) {
+	}
+
+	public ScreenshotProcessor(SeleniumHelperOptions options) {
+		this.options = options;
+	}
+
+	/**
+	 * Processes a PNG screenshot.
+	 *
+	 * @return the bytes to write with their file extension, or null when the frame is unchanged
+	 */
+	public Result process(byte[] png) throws IOException {
+		return process(png, false);
+	}
+
+	/**
+	 * Processes a PNG screenshot. A forced frame, such as the frame of a failed action, is always kept and
+	 * skips the change-only check.
+	 *
+	 * @return the bytes to write with their file extension, or null when the frame is unchanged
+	 */
+	public synchronized Result process(byte[] png, boolean force) throws IOException {
+		int maxWidth = options.getScreenshotMaxWidth();
+		float quality = options.getScreenshotQuality();
+		boolean changeOnly = options.getScreenshotChangeOnly() && !force;
+
+		// Nothing to do, write the original bytes without decoding them
+		if (maxWidth <= 0 && quality >= 1.0f && !changeOnly) {
+			return new Result(png, "png");
+		}
+
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+		if (image == null) {
+			throw new IOException("Screenshot is not a readable image");
+		}
+
+		// Scale first so hashing and encoding work on the smaller image
+		boolean scaled = maxWidth > 0 && image.getWidth() > maxWidth;
+		if (scaled) {
+			image = scale(image, maxWidth);
+		}
+
+		if (changeOnly) {
+			long hash = differenceHash(image);
+			if (hasPrevious && hash == previousHash) {
+				logger.debug("Screenshot unchanged since previous frame, skipping");
+				return null;
+			}
+			previousHash = hash;
+			hasPrevious = true;
+		}
+
+		if (quality < 1.0f) {
+			return new Result(encodeJpeg(image, quality), "jpg");
+		}
+		if (scaled) {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			ImageIO.write(image, "png", output);
+			return new Result(output.toByteArray(), "png");
+		}
+		// Only the hash was needed, the original encoding is kept
+		return new Result(png, "png");
+	}
+
+	// Forget the previous frame, e.g. after navigating to another page
+	public synchronized void reset() {
+		hasPrevious = false;
+	}
+
+	private static BufferedImage scale(BufferedImage image, int width) {
+		int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+		BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = scaled.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(image, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+		return scaled;
+	}
+
+	private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+		// JPEG has no alpha channel, so draw onto an RGB image first
+		BufferedImage rgb = image;
+		if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+			rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+			Graphics2D graphics = rgb.createGraphics();
+			try {
+				graphics.drawImage(image, 0, 0, null);
+			} finally {
+				graphics.dispose();
+			}
+		}
+
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+		if (!writers.hasNext()) {
+			throw new IOException("No JPEG encoder available");
+		}
+		ImageWriter writer = writers.next();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			param.setCompressionQuality(Math.max(0.0f, quality));
+			writer.setOutput(stream);
+			writer.write(null, new IIOImage(rgb, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+		return output.toByteArray();
+	}
+
+	/**
+	 * 64-bit difference hash: averages the luminance of a 9x8 grid of blocks and sets one bit per pair of
+	 * horizontally adjacent blocks. Every pixel is averaged rather than sampling a shrunken copy, so the
+	 * hash reflects whole blocks instead of a few sampled pixels.
+	 */
+	static long differenceHash(BufferedImage image) {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		long[] sums = new long[9 * 8];
+		long[] counts = new long[9 * 8];
+		int[] row = new int[width];
+
+		for (int y = 0; y < height; y++) {
+			image.getRGB(0, y, width, 1, row, 0, width);
+			int blockY = y * 8 / height;
+			for (int x = 0; x < width; x++) {
+				int rgb = row[x];
+				int luminance = (((rgb >> 16) & 0xff) * 299 + ((rgb >> 8) & 0xff) * 587 + (rgb & 0xff) * 114) / 1000;
+				int block = blockY * 9 + x * 9 / width;
+				sums[block] += luminance;
+				counts[block]++;
+			}
+		}
+
+		long hash = 0;
+		for (int y = 0; y < 8; y++) {
+			for (int x = 0; x < 8; x++) {
+				int left = y * 9 + x;
+				// Compare cross-multiplied sums so blocks of different pixel counts stay exact
+				boolean brighter = sums[left] * Math.max(1, counts[left + 1]) > sums[left + 1] * Math.max(1, counts[left]);
+				hash = (hash << 1) | (brighter ? 1 : 0);
+			}
+		}
+		return hash;
+	}
+}
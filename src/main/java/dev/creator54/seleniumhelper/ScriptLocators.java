@@ -0,0 +1,32 @@
+package dev.creator54.seleniumhelper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+
+/**
+ * Helpers for locators that are evaluated inside a script rather than through the driver.
+ */
+final class ScriptLocators {
+	private static final Logger logger = LogManager.getLogger(ScriptLocators.class);
+
+	private ScriptLocators() {
+	}
+
+	// Whether the locator can be evaluated inside a script, i.e. resolves to a CSS selector or XPath expression
+	static boolean isScriptable(By locator) {
+		if (locator instanceof By.Remotable remotable) {
+			String using = remotable.getRemoteParameters().using();
+			return "css selector".equals(using) || "xpath".equals(using);
+		}
+		return false;
+	}
+
+	static By.Remotable.Parameters toRemoteParameters(By locator) {
+		if (isScriptable(locator)) {
+			return ((By.Remotable) locator).getRemoteParameters();
+		}
+		logger.error("Locator must resolve to a CSS selector or XPath expression: {}", locator);
+		throw new IllegalArgumentException("Unsupported locator for script evaluation: " + locator);
+	}
+}
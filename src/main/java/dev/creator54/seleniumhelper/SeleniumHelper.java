@@ -1,6 +1,5 @@
 package dev.creator54.seleniumhelper;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.*;
@@ -10,25 +9,48 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 public class SeleniumHelper {
 	private static final Logger logger = LogManager.getLogger(SeleniumHelper.class);
 	private static WebDriver driver;
 	private static WebDriverWait wait;
 	private static SeleniumHelper instance;
-	private static final String SCREENSHOTS_DIR = "screenshots" + File.separator;
 	private int stepCount = 0;
 	private final SeleniumHelperOptions options;
+	private final CircuitBreaker circuitBreaker;
+	// Last URL navigated to, used to key the circuit breaker without querying the driver
+	private String currentPage = "";
+	// Element touched by the last action, used for element-scoped screenshots
+	private WebElement lastElement;
+	private final ScreenshotProcessor screenshotProcessor;
 	private static long startTime;
+	// Arguments are (using, value) pairs, returns the text of the first match of each pair or null when absent
+	private static final String TEXTS_SCRIPT = """
+			var pairs = arguments[0], texts = [];
+			for (var i = 0; i < pairs.length; i += 2) {
+				var node = pairs[i] === 'xpath'
+						? document.evaluate(pairs[i + 1], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue
+						: document.querySelector(pairs[i + 1]);
+				texts.push(node ? (node.innerText !== undefined ? node.innerText : node.textContent) : null);
+			}
+			return texts;
+			""";
 
 	private void logActionStart(String action) {
 		action = action.trim();
 		logger.info("STARTING ACTION: {}", action);
+		// Actions on an element set it again, so other actions never screenshot an element from earlier
+		lastElement = null;
 	}
 
 	private void logActionSuccess(String action) {
@@ -49,7 +71,8 @@ public class SeleniumHelper {
 		// Attempt to take a screenshot if conditions are met
 		if (options.getScreenshotsState() && driver != null) {
 			try {
-				takeScreenshot(action + " - FAILED");
+				// Failure frames always show the whole viewport and are kept even when unchanged
+				takeScreenshot(action + " - FAILED", null, true);
 			} catch (Exception e) {
 				logger.error("Error while taking screenshot");
 			}
@@ -65,8 +88,71 @@ public class SeleniumHelper {
 		throw new RuntimeException();
 	}
 
+	private void runWithRetry(ActionType actionType, String action, Runnable operation) {
+		runWithRetry(actionType, action, () -> {
+			operation.run();
+			return null;
+		});
+	}
+
+	private <T> T runWithRetry(ActionType actionType, String action, Supplier<T> operation) {
+		return runWithRetry(actionType, action, attempt -> operation.get());
+	}
+
+	/**
+	 * Runs the operation under the retry policy of its action type, passing it the attempt number. Attempts
+	 * that fail with a retryable exception are retried after a jittered backoff. Actions that only succeed
+	 * after retrying still count towards the circuit breaker, and while the circuit for the current page is
+	 * open actions fail immediately without an attempt. Operations must not call other retried actions, so
+	 * each action is counted once by the breaker.
+	 */
+	private <T> T runWithRetry(ActionType actionType, String action, IntFunction<T> operation) {
+		RetryPolicy policy = options.getRetryPolicy(actionType);
+		String page = currentPage;
+		if (circuitBreaker.isOpen(page)) {
+			logger.error("{} - circuit open for page '{}', failing fast", action, page);
+			throw new IllegalStateException("Circuit open for page: " + page);
+		}
+
+		int maxAttempts = policy.getMaxAttempts();
+		for (int attempt = 1; ; attempt++) {
+			try {
+				T result = operation.apply(attempt);
+				if (attempt == 1) {
+					circuitBreaker.recordSuccess(page);
+				}
+				return result;
+			} catch (RuntimeException e) {
+				circuitBreaker.recordFailure(page);
+				if (attempt >= maxAttempts || !policy.isRetryable(e) || circuitBreaker.isOpen(page)) {
+					throw e;
+				}
+
+				long backoff = policy.backoffMillis(attempt);
+				logger.warn("{} - attempt {} of {} failed with {}. Retrying in {} ms", action, attempt, maxAttempts,
+						e.getClass().getSimpleName(), backoff);
+				try {
+					Thread.sleep(backoff);
+				} catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					throw e;
+				}
+			}
+		}
+	}
+
+	// Resolves the element inside a retried action without starting a nested retry of its own
+	private WebElement locate(By locator) {
+		WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+		lastElement = element;
+		return element;
+	}
+
 	private SeleniumHelper(SeleniumHelperOptions options) {
 		this.options = options;
+		this.screenshotProcessor = new ScreenshotProcessor(options);
+		this.circuitBreaker = new CircuitBreaker(options.getCircuitBreakerThreshold(),
+				options.getCircuitBreakerOpenSeconds() * 1000L);
 		logger.info("Initializing SeleniumHelper with options.");
 		setup();
 	}
@@ -138,7 +224,9 @@ public class SeleniumHelper {
 		try {
 			// Check if the current URL is different to avoid unnecessary navigation
 			if (!driver.getCurrentUrl().equals(url)) {
-				driver.get(url);
+				runWithRetry(ActionType.NAVIGATE, action, () -> driver.get(url));
+				currentPage = url;
+				screenshotProcessor.reset();
 				logActionSuccess(action); // Log successful navigation
 			} else {
 				logger.info("{} - URL already loaded. No action taken.", action);
@@ -155,7 +243,9 @@ public class SeleniumHelper {
 		logActionStart(action); // Log the start of the find element action
 
 		try {
-			WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+			WebElement element = runWithRetry(ActionType.FIND, action,
+					() -> wait.until(ExpectedConditions.presenceOfElementLocated(locator)));
+			lastElement = element;
 			logActionSuccess(action); // Log successful find element
 			return element;
 		} catch (Exception e) {
@@ -165,6 +255,16 @@ public class SeleniumHelper {
 		}
 	}
 
+	// Finds the element for a locator stored in the given config
+	public WebElement getElement(JSONHelper jsonHelper, String name) {
+		return findElement(jsonHelper.get(name));
+	}
+
+	// Finds the elements for a locator stored in the given config
+	public List<WebElement> getElements(JSONHelper jsonHelper, String name) {
+		return findElements(jsonHelper.get(name));
+	}
+
 	public void waitUntilPageIsFullyLoaded() {
 		final String action = "Waiting for page to load";
 		logActionStart(action); // Log the start of the page load waiting action
@@ -184,7 +284,8 @@ public class SeleniumHelper {
 		logActionStart(action); // Announce the start of the action to find elements
 
 		try {
-			List<WebElement> elements = wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
+			List<WebElement> elements = runWithRetry(ActionType.FIND, action,
+					() -> wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator)));
 			logActionSuccess(action); // Log the successful find of elements
 			return elements;
 		} catch (Exception e) {
@@ -200,12 +301,18 @@ public class SeleniumHelper {
 		String newValue = "";
 
 		try {
-			WebElement element = findElement(locator);
-
-			element.sendKeys(value);
+			// Retry finding and typing when the element goes stale or is covered
+			runWithRetry(ActionType.SEND_KEYS, action, attempt -> {
+				WebElement target = locate(locator);
+				if (attempt > 1) {
+					target.clear(); // Keys typed before a failed attempt would otherwise be doubled
+				}
+				target.sendKeys(value);
+				return null;
+			});
 
 			// Re-find the element to ensure the value is actually sent to the element
-			element = findElement(locator);
+			WebElement element = findElement(locator);
 			actualValue = element.getAttribute("value");
 
 			newValue = value.trim(); // Remove any leading or trailing whitespace from the value
@@ -216,7 +323,7 @@ public class SeleniumHelper {
 				return; // Exit the method if value was successfully set
 			}
 
-			// Log and throw exception if the value wasn't set after maximum retries
+			// Log and throw exception if the value wasn't set as expected, the check itself is not retried
 			throw new RuntimeException("Failed to send keys to element: " + locator.toString() + ". " +
 					"Expected value: '" + newValue + "', Actual value: '" + actualValue + "'");
 		} catch (Exception e) {
@@ -234,13 +341,19 @@ public class SeleniumHelper {
 		String newValue = "";
 
 		try {
-			WebElement element = findElement(locator);
-
-			element.sendKeys(value);
-			element.sendKeys(Keys.ENTER);
+			// Retry finding and typing when the element goes stale or is covered
+			runWithRetry(ActionType.SEND_KEYS, action, attempt -> {
+				WebElement target = locate(locator);
+				if (attempt > 1) {
+					target.clear(); // Keys typed before a failed attempt would otherwise be doubled
+				}
+				target.sendKeys(value);
+				target.sendKeys(Keys.ENTER);
+				return null;
+			});
 
 			// Re-find the element to ensure the value is actually sent to the element
-			element = findElement(locator);
+			WebElement element = findElement(locator);
 			actualValue = element.getAttribute("value");
 
 			newValue = value.trim(); // Remove any leading or trailing whitespace from the value
@@ -251,7 +364,7 @@ public class SeleniumHelper {
 				return; // Exit the method if value was successfully set
 			}
 
-			// Log and throw exception if the value wasn't set after maximum retries
+			// Log and throw exception if the value wasn't set as expected, the check itself is not retried
 			throw new RuntimeException("Failed to send keys to element: " + locator.toString() + ". " +
 					"Expected value: '" + newValue + "', Actual value: '" + actualValue + "'");
 		} catch (Exception e) {
@@ -269,9 +382,7 @@ public class SeleniumHelper {
 		String newValue = "";
 
 		try {
-			WebElement element = findElement(locator);
-
-			element.sendKeys(keys);
+			runWithRetry(ActionType.SEND_KEYS, action, () -> locate(locator).sendKeys(keys));
 
 			logActionSuccess(action); // Log the successful completion of the action
 		} catch (Exception e) {
@@ -285,8 +396,8 @@ public class SeleniumHelper {
 		logActionStart(action); // Log the start of an action
 
 		try {
-			WebElement element = findElement(locator); // This already includes logging on success or failure
-			element.click();
+			// A stale element is located again on retry
+			runWithRetry(ActionType.CLICK, action, () -> locate(locator).click());
 			logActionSuccess(action); // Log the successful completion of the action
 		} catch (Exception e) {
 			logActionFailure(action); // Log the failure and details of the exception
@@ -300,11 +411,14 @@ public class SeleniumHelper {
 	public void clickElement(WebElement element) {
 		final String action = "Clicking on a specified web element";
 		logActionStart(action); // Announce the start of the action
+		lastElement = element;
 
 		try {
 			// Scroll the element into view before clicking
-			((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", element);
-			element.click();
+			runWithRetry(ActionType.CLICK, action, () -> {
+				((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", element);
+				element.click();
+			});
 			logActionSuccess(action); // Log successful element click
 		} catch (Exception e) {
 			logActionFailure(action); // Log failure to click the element
@@ -382,12 +496,57 @@ public class SeleniumHelper {
 		}
 	}
 
+	public long extractTable(By rowLocator, Map<String, String> columns, File outputFile, TableExtractor.Format format) {
+		final String action = "Extracting table rows: " + rowLocator.toString() + " to " + outputFile.getPath();
+		logActionStart(action); // Log the start of the action
+
+		try {
+			TableExtractor extractor = new TableExtractor((JavascriptExecutor) driver, options.getTableBatchSize());
+			long rows = extractor.extract(rowLocator, columns, outputFile, format);
+			logActionSuccess(action); // Log the successful extraction
+			return rows;
+		} catch (Exception e) {
+			logActionFailure(action); // Log failure to extract the table
+			return -1; // Return -1 to indicate failure
+		}
+	}
+
+	public DomSnapshotter.Baseline captureDomBaseline(File outputFile) {
+		final String action = "Capturing DOM baseline to " + outputFile.getPath();
+		logActionStart(action); // Log the start of the action
+
+		try {
+			DomSnapshotter snapshotter = new DomSnapshotter((JavascriptExecutor) driver, options.getDomSnapshotChunkSize());
+			DomSnapshotter.Baseline baseline = snapshotter.captureBaseline(outputFile);
+			logActionSuccess(action); // Log successful snapshot
+			return baseline;
+		} catch (Exception e) {
+			logActionFailure(action); // Log failure to capture the snapshot
+			return null; // Return null to indicate failure
+		}
+	}
+
+	public DomSnapshotter.DiffResult captureDomDiff(DomSnapshotter.Baseline baseline, File outputFile) {
+		final String action = "Capturing DOM diff against " + baseline.getFile().getPath() + " to " + outputFile.getPath();
+		logActionStart(action); // Log the start of the action
+
+		try {
+			DomSnapshotter snapshotter = new DomSnapshotter((JavascriptExecutor) driver, options.getDomSnapshotChunkSize());
+			DomSnapshotter.DiffResult result = snapshotter.captureDiff(baseline, outputFile);
+			logActionSuccess(action); // Log successful snapshot
+			return result;
+		} catch (Exception e) {
+			logActionFailure(action); // Log failure to capture the snapshot
+			return null; // Return null to indicate failure
+		}
+	}
+
 	public void switchToWindow(String handle) {
 		final String action = "Switching to window with handle: " + handle;
 		logActionStart(action); // Announce the start of the action
 
 		try {
-			driver.switchTo().window(handle);
+			runWithRetry(ActionType.SWITCH, action, () -> driver.switchTo().window(handle));
 			logActionSuccess(action); // Log the successful switch
 		} catch (Exception e) {
 			logActionFailure(action); // Log the failure to switch windows
@@ -400,7 +559,7 @@ public class SeleniumHelper {
 		logActionStart(action); // Log the start of the action
 
 		try {
-			driver.switchTo().frame(frameElement);
+			runWithRetry(ActionType.SWITCH, action, () -> driver.switchTo().frame(frameElement));
 			logActionSuccess(action); // Log successful frame switch
 		} catch (Exception e) {
 			logActionFailure(action); // Log failure to switch to the frame
@@ -413,7 +572,7 @@ public class SeleniumHelper {
 		logActionStart(action); // Log the start of the action
 
 		try {
-			driver.switchTo().defaultContent();
+			runWithRetry(ActionType.SWITCH, action, () -> driver.switchTo().defaultContent());
 			logActionSuccess(action); // Log the successful return to default content
 		} catch (Exception e) {
 			logActionFailure(action); // Log failure to switch back to default content
@@ -422,22 +581,36 @@ public class SeleniumHelper {
 	}
 
 	public String takeScreenshot(String action) {
+		// Scope the screenshot to the element the last action touched when enabled
+		return takeScreenshot(action, options.getElementScreenshots() ? lastElement : null);
+	}
+
+	public String takeScreenshot(String action, WebElement element) {
+		return takeScreenshot(action, element, false);
+	}
+
+	private String takeScreenshot(String action, WebElement element, boolean force) {
 		if (!options.getScreenshotsState()) {
 			logger.info("Screenshot capturing is disabled for action: {}", action);
 			return null; // Early exit if screenshot capturing is disabled
 		}
 
-		File screenshotsDir = new File(SCREENSHOTS_DIR);
+		File screenshotsDir = new File(options.getScreenshotsDir());
 		if (!screenshotsDir.exists() && !screenshotsDir.mkdirs()) {
-			logger.error("Failed to create screenshots directory: {}", SCREENSHOTS_DIR);
+			logger.error("Failed to create screenshots directory: {}", screenshotsDir.getPath());
 			return null; // Early exit if unable to create the directory
 		}
 
-		String screenshotName = generateScreenshotName(action);
-		File screenshotFile = new File(screenshotsDir, screenshotName);
 		try {
-			File screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-			FileUtils.copyFile(screenshot, screenshotFile);
+			byte[] screenshot = captureScreenshot(element);
+			ScreenshotProcessor.Result result = screenshotProcessor.process(screenshot, force);
+			if (result == null) {
+				logger.info("Screenshot unchanged, not saved for action: {}", action);
+				return null; // Change-only mode skips frames identical to the previous one
+			}
+
+			File screenshotFile = new File(screenshotsDir, generateScreenshotName(action, result.extension()));
+			Files.write(screenshotFile.toPath(), result.data());
 			logger.info("Screenshot saved: {}", screenshotFile.getAbsolutePath());
 			return screenshotFile.getAbsolutePath();
 		} catch (Exception e) {
@@ -446,14 +619,26 @@ public class SeleniumHelper {
 		}
 	}
 
-	private String generateScreenshotName(String action) {
+	private byte[] captureScreenshot(WebElement element) {
+		if (element != null) {
+			try {
+				return element.getScreenshotAs(OutputType.BYTES);
+			} catch (WebDriverException e) {
+				// The element may be stale or hidden after the action, fall back to the viewport
+				logger.debug("Element screenshot failed, capturing the viewport instead: {}", e.getMessage());
+			}
+		}
+		return ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+	}
+
+	private String generateScreenshotName(String action, String extension) {
 		SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
 		String timestamp = dateFormat.format(new Date());
 		// Normalize the action string to ensure it is filesystem-safe
 		String actionNormalized = action.replaceAll("[^a-zA-Z0-9\\-_]+", "_")
 				.replaceAll("_+", "_")
 				.trim();
-		return String.format("Step_%d_%s_%s.png", stepCount++, actionNormalized, timestamp);
+		return String.format("Step_%d_%s_%s.%s", stepCount++, actionNormalized, timestamp, extension);
 	}
 
 	// get text from locator
@@ -465,6 +650,32 @@ public class SeleniumHelper {
 		}
 	}
 
+	// get text from several CSS or XPath locators with one script call per poll, waiting until all are present
+	@SuppressWarnings("unchecked")
+	public List<String> getTexts(List<By> locators) {
+		final String action = "Getting text from " + locators.size() + " elements";
+		logActionStart(action); // Log the start of the action
+
+		try {
+			List<String> arguments = new ArrayList<>(locators.size() * 2);
+			for (By locator : locators) {
+				By.Remotable.Parameters parameters = ScriptLocators.toRemoteParameters(locator);
+				arguments.add(parameters.using());
+				arguments.add(String.valueOf(parameters.value()));
+			}
+
+			List<String> texts = wait.until(webDriver -> {
+				List<String> result = (List<String>) ((JavascriptExecutor) webDriver).executeScript(TEXTS_SCRIPT, arguments);
+				return result != null && !result.contains(null) ? result : null;
+			});
+			logActionSuccess(action); // Log the successful retrieval
+			return texts;
+		} catch (Exception e) {
+			logActionFailure(action); // Log failure to read the elements
+			return null; // Return null to indicate failure
+		}
+	}
+
 	// get text from Element
 	public String getText(WebElement element) {
 		try {
@@ -1,5 +1,8 @@
 package dev.creator54.seleniumhelper;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.firefox.FirefoxDriverLogLevel;
@@ -11,31 +14,61 @@ import org.openqa.selenium.firefox.FirefoxOptions;
 public class SeleniumHelperOptions {
 	private int timeoutInSeconds;
 	private boolean screenshotsState;
+	private String screenshotsDir;
+	private boolean elementScreenshots;
+	private int screenshotMaxWidth;
+	private float screenshotQuality;
+	private boolean screenshotChangeOnly;
+	private int tableBatchSize;
+	private int domSnapshotChunkSize;
+	private RetryPolicy defaultRetryPolicy;
+	private final Map<ActionType, RetryPolicy> retryPolicies = new EnumMap<>(ActionType.class);
+	private int circuitBreakerThreshold;
+	private int circuitBreakerOpenSeconds;
 	private static final Logger logger = LogManager.getLogger(SeleniumHelperOptions.class);
 	private FirefoxOptions firefoxOptions;
 
 	/**
-	 * Constructor initializes default values and sets FirefoxOptions based on the browser mode.
+	 * Constructor initializes default values and sets FirefoxOptions based on the browser mode
+	 * read from the default config.json.
 	 */
 	public SeleniumHelperOptions() {
+		this(new JSONHelper());
+	}
+
+	/**
+	 * Constructor initializes default values and sets FirefoxOptions based on the browser mode
+	 * read from the given config.
+	 */
+	public SeleniumHelperOptions(JSONHelper jsonHelper) {
 		// Default values for timeout and screenshot capability
 		this.timeoutInSeconds = 10; // Default timeout
 		this.screenshotsState = true; // Screenshot capability enabled by default
+		this.screenshotsDir = "screenshots"; // Relative to the working directory
+		this.elementScreenshots = false; // Capture the full viewport by default
+		this.screenshotMaxWidth = 0; // Keep native resolution
+		this.screenshotQuality = 1.0f; // Lossless PNG, values below 1 re-encode as JPEG
+		this.screenshotChangeOnly = false; // Write every frame
+		this.tableBatchSize = 200; // Rows read per script call during table extraction
+		this.domSnapshotChunkSize = 256 * 1024; // Characters read per script call during DOM snapshots
+		this.defaultRetryPolicy = new RetryPolicy(); // Retries stale and intercepted elements
+		this.circuitBreakerThreshold = 5; // Consecutive failures on a page before retries stop
+		this.circuitBreakerOpenSeconds = 30;
 
 		// Initialize FirefoxOptions based on browser mode from JSON configuration
-		initializeFirefoxOptions();
+		initializeFirefoxOptions(jsonHelper);
 	}
 
 	/**
 	 * Initializes FirefoxOptions based on the configured browser mode.
 	 */
-	private void initializeFirefoxOptions() {
+	private void initializeFirefoxOptions(JSONHelper jsonHelper) {
 		// Default browser mode
 		String browserMode = "default";
 
 		try {
 			// Attempt to obtain browser mode value
-			browserMode = new JSONHelper().getValue("browser-mode");
+			browserMode = jsonHelper.getValue("browser-mode");
 		} catch (Exception e) {
 			logger.info("browser-mode not set in config. Starting browser in non-headless mode");
 		}
@@ -73,6 +106,145 @@ public class SeleniumHelperOptions {
 		}
 	}
 
+	// Getter and setter for screenshotsDir
+	public String getScreenshotsDir() {
+		return screenshotsDir;
+	}
+
+	public void setScreenshotsDir(String screenshotsDir) {
+		if (screenshotsDir != null && !screenshotsDir.equals(this.screenshotsDir)) {
+			logger.info("Changing screenshotsDir from {} to {}", this.screenshotsDir, screenshotsDir);
+			this.screenshotsDir = screenshotsDir;
+		}
+	}
+
+	// Getter and setter for elementScreenshots, capturing only the element an action touched
+	public boolean getElementScreenshots() {
+		return elementScreenshots;
+	}
+
+	public void setElementScreenshots(boolean elementScreenshots) {
+		if (this.elementScreenshots != elementScreenshots) {
+			logger.info("Changing elementScreenshots from {} to {}", this.elementScreenshots, elementScreenshots);
+			this.elementScreenshots = elementScreenshots;
+		}
+	}
+
+	// Getter and setter for screenshotMaxWidth, 0 keeps the native resolution
+	public int getScreenshotMaxWidth() {
+		return screenshotMaxWidth;
+	}
+
+	public void setScreenshotMaxWidth(int screenshotMaxWidth) {
+		if (this.screenshotMaxWidth != screenshotMaxWidth) {
+			logger.info("Changing screenshotMaxWidth from {} to {}", this.screenshotMaxWidth, screenshotMaxWidth);
+			this.screenshotMaxWidth = screenshotMaxWidth;
+		}
+	}
+
+	// Getter and setter for screenshotQuality, values below 1.0 write JPEG at that quality
+	public float getScreenshotQuality() {
+		return screenshotQuality;
+	}
+
+	public void setScreenshotQuality(float screenshotQuality) {
+		if (screenshotQuality <= 0.0f || screenshotQuality > 1.0f) {
+			throw new IllegalArgumentException("screenshotQuality must be in (0, 1]: " + screenshotQuality);
+		}
+		if (this.screenshotQuality != screenshotQuality) {
+			logger.info("Changing screenshotQuality from {} to {}", this.screenshotQuality, screenshotQuality);
+			this.screenshotQuality = screenshotQuality;
+		}
+	}
+
+	// Getter and setter for screenshotChangeOnly, skipping frames identical to the previous one
+	public boolean getScreenshotChangeOnly() {
+		return screenshotChangeOnly;
+	}
+
+	public void setScreenshotChangeOnly(boolean screenshotChangeOnly) {
+		if (this.screenshotChangeOnly != screenshotChangeOnly) {
+			logger.info("Changing screenshotChangeOnly from {} to {}", this.screenshotChangeOnly, screenshotChangeOnly);
+			this.screenshotChangeOnly = screenshotChangeOnly;
+		}
+	}
+
+	// Getter and setter for tableBatchSize
+	public int getTableBatchSize() {
+		return tableBatchSize;
+	}
+
+	public void setTableBatchSize(int tableBatchSize) {
+		if (tableBatchSize <= 0) {
+			throw new IllegalArgumentException("tableBatchSize must be positive: " + tableBatchSize);
+		}
+		if (this.tableBatchSize != tableBatchSize) {
+			logger.info("Changing tableBatchSize from {} to {}", this.tableBatchSize, tableBatchSize);
+			this.tableBatchSize = tableBatchSize;
+		}
+	}
+
+	// Getter and setter for domSnapshotChunkSize
+	public int getDomSnapshotChunkSize() {
+		return domSnapshotChunkSize;
+	}
+
+	public void setDomSnapshotChunkSize(int domSnapshotChunkSize) {
+		if (domSnapshotChunkSize <= 0) {
+			throw new IllegalArgumentException("domSnapshotChunkSize must be positive: " + domSnapshotChunkSize);
+		}
+		if (this.domSnapshotChunkSize != domSnapshotChunkSize) {
+			logger.info("Changing domSnapshotChunkSize from {} to {}", this.domSnapshotChunkSize, domSnapshotChunkSize);
+			this.domSnapshotChunkSize = domSnapshotChunkSize;
+		}
+	}
+
+	// Getters and setters for retry policies, falling back to the default policy for unconfigured action types
+	public RetryPolicy getRetryPolicy(ActionType actionType) {
+		return retryPolicies.getOrDefault(actionType, defaultRetryPolicy);
+	}
+
+	public void setRetryPolicy(ActionType actionType, RetryPolicy policy) {
+		logger.info("Setting retry policy for {}: {} attempts", actionType, policy.getMaxAttempts());
+		retryPolicies.put(actionType, policy);
+	}
+
+	public RetryPolicy getDefaultRetryPolicy() {
+		return defaultRetryPolicy;
+	}
+
+	public void setDefaultRetryPolicy(RetryPolicy policy) {
+		if (policy != null) {
+			logger.info("Setting default retry policy: {} attempts", policy.getMaxAttempts());
+			this.defaultRetryPolicy = policy;
+		}
+	}
+
+	// Getters and setters for the circuit breaker, a threshold of 0 disables it
+	public int getCircuitBreakerThreshold() {
+		return circuitBreakerThreshold;
+	}
+
+	public void setCircuitBreakerThreshold(int circuitBreakerThreshold) {
+		if (this.circuitBreakerThreshold != circuitBreakerThreshold) {
+			logger.info("Changing circuitBreakerThreshold from {} to {}", this.circuitBreakerThreshold,
+					circuitBreakerThreshold);
+			this.circuitBreakerThreshold = circuitBreakerThreshold;
+		}
+	}
+
+	public int getCircuitBreakerOpenSeconds() {
+		return circuitBreakerOpenSeconds;
+	}
+
+	public void setCircuitBreakerOpenSeconds(int circuitBreakerOpenSeconds) {
+		if (this.circuitBreakerOpenSeconds != circuitBreakerOpenSeconds) {
+			logger.info("Changing circuitBreakerOpenSeconds from {} to {} seconds", this.circuitBreakerOpenSeconds,
+					circuitBreakerOpenSeconds);
+			this.circuitBreakerOpenSeconds = circuitBreakerOpenSeconds;
+		}
+	}
+
 	// Getter and setter for FirefoxOptions
 	public FirefoxOptions getFirefoxOptions() {
 		return firefoxOptions;
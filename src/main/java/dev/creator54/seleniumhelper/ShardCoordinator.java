@@ -0,0 +1,345 @@
+package dev.creator54.seleniumhelper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Runs flows across several local worker JVMs, each with its own {@link SeleniumHelper} and screenshot
+ * directory.
+ * <p>
+ * Workers pull scenario IDs (flow names) from a queue served over a localhost socket. The queue is ordered
+ * longest first using durations recorded by earlier runs, with unmeasured scenarios first, so the last
+ * scenarios to start are the short ones. Each worker writes a journal line per scenario into
+ * {@code <outputDir>/worker-<n>}; at the end the journals are merged into {@code journal.jsonl}, a summary
+ * is written to {@code metrics.json} and {@code durations.properties} is updated for the next run.
+ * <p>
+ * A worker exits after a failed scenario, since the browser is closed by the failure, and is replaced while
+ * scenarios remain.
+ */
+public class ShardCoordinator {
+	private static final Logger logger = LogManager.getLogger(ShardCoordinator.class);
+
+	static final String JOURNAL_FILE = "journal.jsonl";
+	private static final String DURATIONS_FILE = "durations.properties";
+	private static final String METRICS_FILE = "metrics.json";
+
+	private final int workers;
+	private final File outputDir;
+	private final String configPath;
+
+	private final Deque<String> queue = new ArrayDeque<>();
+	// Scenarios handed to a worker whose connection closed before it reported them finished
+	private final List<String> lost = new ArrayList<>();
+	// Connection handlers, joined before merging so every lost scenario is recorded
+	private final List<Thread> handlers = new ArrayList<>();
+
+	public record Summary(int scenarios, int passed, int failed, long wallMillis) {
+	}
+
+	public ShardCoordinator(int workers, File outputDir, String configPath) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("At least one worker is required: " + workers);
+		}
+		this.workers = workers;
+		this.outputDir = outputDir;
+		this.configPath = configPath;
+	}
+
+	public Summary run(List<String> scenarioIds) throws IOException, InterruptedException {
+		long start = System.nanoTime();
+		if (!outputDir.exists() && !outputDir.mkdirs()) {
+			throw new IOException("Failed to create output directory: " + outputDir);
+		}
+
+		// Journals from a previous run would otherwise be merged again
+		for (int i = 0; i < workers; i++) {
+			Files.deleteIfExists(new File(new File(outputDir, "worker-" + i), JOURNAL_FILE).toPath());
+		}
+
+		Properties durations = loadDurations();
+		List<String> ordered = new ArrayList<>(scenarioIds);
+		ordered.sort(Comparator.comparingLong((String id) -> durationOf(durations, id)).reversed());
+		synchronized (queue) {
+			queue.clear();
+			queue.addAll(ordered);
+			lost.clear();
+		}
+		synchronized (handlers) {
+			handlers.clear();
+		}
+		logger.info("Sharding {} scenarios across {} workers", ordered.size(), workers);
+
+		Thread acceptor;
+		try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+			acceptor = new Thread(() -> acceptWorkers(server), "shard-acceptor");
+			acceptor.setDaemon(true);
+			acceptor.start();
+
+			Process[] processes = new Process[workers];
+			for (int i = 0; i < workers; i++) {
+				processes[i] = launchWorker(i, server.getLocalPort());
+			}
+
+			// Replace workers that exit while scenarios remain, bounded so a broken setup cannot loop forever
+			int restarts = 0;
+			boolean running = true;
+			while (running) {
+				running = false;
+				for (int i = 0; i < workers; i++) {
+					if (processes[i] == null) {
+						continue;
+					}
+					if (processes[i].isAlive()) {
+						running = true;
+						continue;
+					}
+					logger.info("Worker {} exited with code {}", i, processes[i].exitValue());
+					processes[i] = null;
+					if (hasQueuedScenarios() && restarts < ordered.size()) {
+						restarts++;
+						processes[i] = launchWorker(i, server.getLocalPort());
+						running = true;
+					}
+				}
+				if (running) {
+					Thread.sleep(200);
+				}
+			}
+		}
+
+		// All workers have exited, so each handler sees the end of its connection and finishes
+		acceptor.join();
+		List<Thread> finished;
+		synchronized (handlers) {
+			finished = new ArrayList<>(handlers);
+		}
+		for (Thread handler : finished) {
+			handler.join();
+		}
+
+		long wallMillis = (System.nanoTime() - start) / 1_000_000;
+		return merge(durations, wallMillis);
+	}
+
+	private boolean hasQueuedScenarios() {
+		synchronized (queue) {
+			return !queue.isEmpty();
+		}
+	}
+
+	private Process launchWorker(int index, int port) throws IOException {
+		File workerDir = new File(outputDir, "worker-" + index);
+		if (!workerDir.exists() && !workerDir.mkdirs()) {
+			throw new IOException("Failed to create worker directory: " + workerDir);
+		}
+
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+				ShardWorker.class.getName(), String.valueOf(port), String.valueOf(index), workerDir.getAbsolutePath(),
+				configPath);
+		File log = new File(workerDir, "worker.log");
+		builder.redirectErrorStream(true);
+		builder.redirectOutput(ProcessBuilder.Redirect.appendTo(log));
+		logger.info("Launching worker {}, output in {}", index, log.getAbsolutePath());
+		return builder.start();
+	}
+
+	private void acceptWorkers(ServerSocket server) {
+		while (!server.isClosed()) {
+			try {
+				Socket socket = server.accept();
+				Thread handler = new Thread(() -> serveWorker(socket), "shard-worker-connection");
+				handler.setDaemon(true);
+				synchronized (handlers) {
+					handlers.add(handler);
+				}
+				handler.start();
+			} catch (SocketException e) {
+				return; // Server socket closed at the end of the run
+			} catch (IOException e) {
+				logger.error("Failed to accept worker connection: {}", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Line protocol: the worker sends {@code NEXT} and receives {@code RUN <id>} or {@code DONE}, and sends
+	 * {@code FINISHED <id>} once the scenario's journal line is written.
+	 */
+	private void serveWorker(Socket socket) {
+		String inFlight = null;
+		try (socket;
+				BufferedReader reader = new BufferedReader(
+						new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				BufferedWriter writer = new BufferedWriter(
+						new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.equals("NEXT")) {
+					String next;
+					synchronized (queue) {
+						next = queue.pollFirst();
+					}
+					inFlight = next;
+					writer.write(next == null ? "DONE" : "RUN " + next);
+					writer.newLine();
+					writer.flush();
+				} else if (line.startsWith("FINISHED ")) {
+					inFlight = null;
+				}
+			}
+		} catch (IOException e) {
+			logger.warn("Worker connection closed: {}", e.getMessage());
+		}
+
+		if (inFlight != null) {
+			logger.error("Worker exited while running scenario: {}", inFlight);
+			synchronized (queue) {
+				lost.add(inFlight);
+			}
+		}
+	}
+
+	private Summary merge(Properties durations, long wallMillis) throws IOException {
+		int passed = 0;
+		int failed = 0;
+		long scenarioMillis = 0;
+		JSONParser parser = new JSONParser();
+
+		try (BufferedWriter merged = Files.newBufferedWriter(new File(outputDir, JOURNAL_FILE).toPath(),
+				StandardCharsets.UTF_8)) {
+			for (int i = 0; i < workers; i++) {
+				File journal = new File(new File(outputDir, "worker-" + i), JOURNAL_FILE);
+				if (!journal.exists()) {
+					continue;
+				}
+				for (String line : Files.readAllLines(journal.toPath(), StandardCharsets.UTF_8)) {
+					if (line.isBlank()) {
+						continue;
+					}
+					JSONObject entry = (JSONObject) parser.parse(line);
+					long millis = ((Number) entry.get("durationMillis")).longValue();
+					scenarioMillis += millis;
+					if ("passed".equals(entry.get("status"))) {
+						passed++;
+						durations.setProperty((String) entry.get("scenario"), String.valueOf(millis));
+					} else {
+						failed++;
+					}
+					merged.write(line);
+					merged.newLine();
+				}
+			}
+
+			List<String> lostScenarios;
+			synchronized (queue) {
+				lostScenarios = new ArrayList<>(lost);
+			}
+			for (String id : lostScenarios) {
+				failed++;
+				writeJson(merged, journalEntry(id, "lost", 0, -1));
+				merged.newLine();
+			}
+		} catch (ParseException e) {
+			logger.error("Error reading worker journal: {}", e.getMessage());
+			throw new IOException(e);
+		}
+
+		try (Writer writer = Files.newBufferedWriter(new File(outputDir, DURATIONS_FILE).toPath(),
+				StandardCharsets.UTF_8)) {
+			durations.store(writer, "Scenario durations in milliseconds from the last passing run");
+		}
+
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("workers", workers);
+		metrics.put("scenarios", passed + failed);
+		metrics.put("passed", passed);
+		metrics.put("failed", failed);
+		metrics.put("wallMillis", wallMillis);
+		metrics.put("scenarioMillis", scenarioMillis);
+		try (Writer writer = Files.newBufferedWriter(new File(outputDir, METRICS_FILE).toPath(),
+				StandardCharsets.UTF_8)) {
+			writeJson(writer, metrics);
+		}
+
+		logger.info("Sharded run finished: {} passed, {} failed in {} ms", passed, failed, wallMillis);
+		return new Summary(passed + failed, passed, failed, wallMillis);
+	}
+
+	static Map<String, Object> journalEntry(String scenario, String status, long durationMillis, int worker) {
+		Map<String, Object> entry = new LinkedHashMap<>();
+		entry.put("scenario", scenario);
+		entry.put("status", status);
+		entry.put("durationMillis", durationMillis);
+		entry.put("worker", worker);
+		return entry;
+	}
+
+	static void writeJson(Writer writer, Map<String, Object> values) throws IOException {
+		writer.write(JSONValue.toJSONString(values));
+	}
+
+	private Properties loadDurations() throws IOException {
+		Properties durations = new Properties();
+		File file = new File(outputDir, DURATIONS_FILE);
+		if (file.exists()) {
+			try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+				durations.load(reader);
+			}
+		}
+		return durations;
+	}
+
+	// Unmeasured scenarios sort first so they are measured and never left as a long tail
+	private static long durationOf(Properties durations, String id) {
+		String value = durations.getProperty(id);
+		if (value == null) {
+			return Long.MAX_VALUE;
+		}
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Usage: {@code ShardCoordinator <workers> <outputDir> <configPath> <flow>...}
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 4) {
+			System.err.println("Usage: ShardCoordinator <workers> <outputDir> <configPath> <flow>...");
+			System.exit(2);
+		}
+		ShardCoordinator coordinator = new ShardCoordinator(Integer.parseInt(args[0]), new File(args[1]), args[2]);
+		Summary summary = coordinator.run(List.of(args).subList(3, args.length));
+		System.exit(summary.failed() == 0 ? 0 : 1);
+	}
+}
@@ -0,0 +1,84 @@
+package dev.creator54.seleniumhelper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Worker JVM launched by {@link ShardCoordinator}. Pulls flow names from the coordinator, runs them with
+ * its own {@link SeleniumHelper} and appends one journal line per flow to its directory.
+ */
+public class ShardWorker {
+	private static final Logger logger = LogManager.getLogger(ShardWorker.class);
+
+	/**
+	 * Usage: {@code ShardWorker <port> <index> <workerDir> <configPath>}
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = Integer.parseInt(args[0]);
+		int index = Integer.parseInt(args[1]);
+		File workerDir = new File(args[2]);
+		JSONHelper jsonHelper = new JSONHelper(args[3]);
+
+		SeleniumHelperOptions options = new SeleniumHelperOptions(jsonHelper);
+		options.setScreenshotsDir(new File(workerDir, "screenshots").getPath());
+		File journal = new File(workerDir, ShardCoordinator.JOURNAL_FILE);
+
+		boolean failed = false;
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+				BufferedReader reader = new BufferedReader(
+						new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				BufferedWriter writer = new BufferedWriter(
+						new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			while (!failed) {
+				writer.write("NEXT");
+				writer.newLine();
+				writer.flush();
+
+				String reply = reader.readLine();
+				if (reply == null || !reply.startsWith("RUN ")) {
+					break;
+				}
+				String scenario = reply.substring("RUN ".length());
+
+				logger.info("Worker {} running scenario: {}", index, scenario);
+				long start = System.nanoTime();
+				try {
+					FlowPlan plan = jsonHelper.compileFlow(scenario);
+					plan.run(SeleniumHelper.getInstance(options));
+				} catch (RuntimeException e) {
+					logger.error("Worker {} scenario failed: {}", index, scenario, e);
+					failed = true;
+				}
+				long millis = (System.nanoTime() - start) / 1_000_000;
+
+				try (BufferedWriter journalWriter = Files.newBufferedWriter(journal.toPath(), StandardCharsets.UTF_8,
+						StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+					ShardCoordinator.writeJson(journalWriter,
+							ShardCoordinator.journalEntry(scenario, failed ? "failed" : "passed", millis, index));
+					journalWriter.newLine();
+				}
+
+				writer.write("FINISHED " + scenario);
+				writer.newLine();
+				writer.flush();
+			}
+		} finally {
+			SeleniumHelper.quit();
+		}
+
+		// A failed action closes the browser, so the coordinator starts a fresh worker for the rest
+		System.exit(failed ? 1 : 0);
+	}
+}
@@ -0,0 +1,192 @@
+package dev.creator54.seleniumhelper;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.simple.JSONValue;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+
+/**
+ * Extracts table or list rows in fixed-size batches and streams them to a CSV or JSONL file.
+ * Each batch is read with a single script call, so only one batch of rows is held in memory at a time.
+ */
+public class TableExtractor {
+	private static final Logger logger = LogManager.getLogger(TableExtractor.class);
+
+	// Resolves the rows once into a window-scoped array so later batches neither re-query the document
+	// nor skip or repeat rows added or removed in the meantime.
+	private static final String RESOLVE_SCRIPT = """
+			var using = arguments[0], value = arguments[1], rows = [], i;
+			if (using === 'xpath') {
+				var snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+				for (i = 0; i < snapshot.snapshotLength; i++) rows.push(snapshot.snapshotItem(i));
+			} else {
+				rows = Array.prototype.slice.call(document.querySelectorAll(value));
+			}
+			window.__seleniumHelperRows = rows;
+			return rows.length;
+			""";
+	// Reads the text of every column sub-selector for one slice of the resolved rows.
+	// An empty sub-selector reads the row itself, a missing cell is returned as null.
+	private static final String BATCH_SCRIPT = """
+			var rows = window.__seleniumHelperRows, offset = arguments[0], selectors = arguments[2];
+			if (rows === undefined) return null;
+			return rows.slice(offset, offset + arguments[1]).map(function (row) {
+				return selectors.map(function (selector) {
+					var cell = selector ? row.querySelector(selector) : row;
+					if (!cell) return null;
+					var text = cell.innerText !== undefined ? cell.innerText : cell.textContent;
+					return text === null ? null : text.trim();
+				});
+			});
+			""";
+
+	private static final String CLEANUP_SCRIPT = "delete window.__seleniumHelperRows;";
+
+	public enum Format {
+		CSV,
+		JSONL
+	}
+
+	private final JavascriptExecutor executor;
+	private final int batchSize;
+
+	public TableExtractor(JavascriptExecutor executor, int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		this.executor = executor;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Streams every row matched by {@code rowLocator} to {@code outputFile}.
+	 *
+	 * @param rowLocator locator of the rows, must resolve to a CSS selector or an XPath expression
+	 * @param columns    column name to CSS sub-selector relative to the row, in output order
+	 * @param outputFile file to write, overwritten if it exists
+	 * @param format     output format
+	 * @return number of rows written
+	 */
+	public long extract(By rowLocator, Map<String, String> columns, File outputFile, Format format) throws IOException {
+		if (columns.isEmpty()) {
+			throw new IllegalArgumentException("At least one column is required");
+		}
+
+		By.Remotable.Parameters parameters = ScriptLocators.toRemoteParameters(rowLocator);
+		List<String> names = new ArrayList<>(columns.keySet());
+		List<String> selectors = new ArrayList<>(columns.values());
+
+		File parent = outputFile.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs()) {
+			throw new IOException("Failed to create output directory: " + parent);
+		}
+
+		long written = 0;
+		try (BufferedWriter writer = Files.newBufferedWriter(outputFile.toPath(), StandardCharsets.UTF_8)) {
+			if (format == Format.CSV) {
+				writeCsvRow(writer, names);
+			}
+
+			long total = ((Number) executor.executeScript(RESOLVE_SCRIPT, parameters.using(), parameters.value()))
+					.longValue();
+			try {
+				while (written < total) {
+					List<List<String>> batch = fetchBatch(written, selectors);
+						for (List<String> row : batch) {
+						if (format == Format.CSV) {
+							writeCsvRow(writer, row);
+						} else {
+							writeJsonLine(writer, names, row);
+						}
+					}
+					writer.flush();
+					written += batch.size();
+					logger.debug("Extracted batch of {} rows, {} rows written so far", batch.size(), written);
+				}
+			} finally {
+				try {
+					executor.executeScript(CLEANUP_SCRIPT);
+				} catch (RuntimeException e) {
+					// The page may have navigated away, which already discarded the rows
+					logger.warn("Failed to release resolved table rows: {}", e.getMessage());
+				}
+			}
+		}
+
+		logger.info("Extracted {} rows to {}", written, outputFile.getAbsolutePath());
+		return written;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<List<String>> fetchBatch(long offset, List<String> selectors) throws IOException {
+		Object result = executor.executeScript(BATCH_SCRIPT, offset, batchSize, selectors);
+		if (!(result instanceof List<?> rows) || rows.isEmpty()) {
+			throw new IOException("Table rows were discarded while extracting, the page may have navigated away");
+		}
+
+		List<List<String>> batch = new ArrayList<>(rows.size());
+		for (Object row : rows) {
+			List<String> cells = new ArrayList<>(selectors.size());
+			for (Object cell : (List<Object>) row) {
+				cells.add(cell == null ? null : String.valueOf(cell));
+			}
+			batch.add(cells);
+		}
+		return batch;
+	}
+
+	private static void writeCsvRow(BufferedWriter writer, List<String> values) throws IOException {
+		for (int i = 0; i < values.size(); i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			String value = values.get(i);
+			if (value == null) {
+				continue;
+			}
+			if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+					|| value.indexOf('\r') >= 0) {
+				writer.write('"');
+				writer.write(value.replace("\"", "\"\""));
+				writer.write('"');
+			} else {
+				writer.write(value);
+			}
+		}
+		writer.write('\n');
+	}
+
+	// Written by hand rather than through JSONObject so the configured column order is kept
+	private static void writeJsonLine(BufferedWriter writer, List<String> names, List<String> values)
+			throws IOException {
+		writer.write('{');
+		for (int i = 0; i < names.size(); i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			writer.write('"');
+			writer.write(JSONValue.escape(names.get(i)));
+			writer.write("\":");
+			String value = i < values.size() ? values.get(i) : null;
+			if (value == null) {
+				writer.write("null");
+			} else {
+				writer.write('"');
+				writer.write(JSONValue.escape(value));
+				writer.write('"');
+			}
+		}
+		writer.write('}');
+		writer.write('\n');
+	}
+}
@@ -0,0 +1,158 @@
+package dev.creator54.seleniumhelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriverException;
+
+class DomSnapshotterTest {
+	// Small enough that every page spans many chunks
+	private static final int CHUNK_SIZE = 8;
+	// U+1F600, a surrogate pair in UTF-16
+	private static final String EMOJI = "\uD83D\uDE00";
+
+	@TempDir
+	File tempDir;
+
+	// Serves a fixed document through the same script protocol as the browser, including the surrogate rule
+	private static final class FakeExecutor implements JavascriptExecutor {
+		private String document;
+		private String serialised;
+		private boolean failCleanup;
+		private boolean dropDom;
+		// Chunks shortened to keep a surrogate pair together
+		private int heldPairs;
+
+		private FakeExecutor(String document) {
+			this.document = document;
+		}
+
+		@Override
+		public Object executeScript(String script, Object... args) {
+			if (script.contains("outerHTML")) {
+				serialised = document;
+				return (long) serialised.length();
+			}
+			if (script.contains("substring")) {
+				if (serialised == null || dropDom) {
+					return null;
+				}
+				int start = ((Number) args[0]).intValue();
+				int end = Math.min(start + ((Number) args[1]).intValue(), serialised.length());
+				if (end < serialised.length() && Character.isHighSurrogate(serialised.charAt(end - 1))) {
+					end--;
+					heldPairs++;
+				}
+				return serialised.substring(start, end);
+			}
+			if (script.startsWith("delete")) {
+				if (failCleanup) {
+					throw new WebDriverException("No such window");
+				}
+				serialised = null;
+				return null;
+			}
+			throw new IllegalArgumentException("Unexpected script: " + script);
+		}
+
+		@Override
+		public Object executeAsyncScript(String script, Object... args) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static String page(String... items) {
+		StringBuilder html = new StringBuilder("<html><head><title>Items</title></head><body><ul>");
+		for (String item : items) {
+			html.append("<li>").append(item).append("</li>");
+		}
+		return html.append("</ul></body></html>").toString();
+	}
+
+	private static String[] items(int count) {
+		String[] items = new String[count];
+		for (int i = 0; i < count; i++) {
+			items[i] = "item " + i;
+		}
+		return items;
+	}
+
+	private static String gunzip(File file) throws IOException {
+		try (InputStream input = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+			return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static String restore(File baselineFile, File diffFile) throws IOException {
+		StringWriter output = new StringWriter();
+		DomSnapshotter.restore(baselineFile, diffFile, output);
+		return output.toString();
+	}
+
+	@Test
+	void restoresDiffAcrossChunkBoundaryAndSurrogatePair() throws IOException {
+		String[] baselineItems = items(40);
+		// Places the high surrogate on the last character of a chunk
+		baselineItems[3] = "abcde" + EMOJI + "f";
+		String baselineHtml = page(baselineItems);
+		FakeExecutor executor = new FakeExecutor(baselineHtml);
+		DomSnapshotter snapshotter = new DomSnapshotter(executor, CHUNK_SIZE);
+
+		File baselineFile = new File(tempDir, "baseline.html.gz");
+		DomSnapshotter.Baseline baseline = snapshotter.captureBaseline(baselineFile);
+		assertTrue(executor.heldPairs > 0);
+		assertEquals(baselineHtml, gunzip(baselineFile));
+
+		String[] changedItems = items(40);
+		changedItems[3] = "abcde" + EMOJI + "f";
+		changedItems[10] = "changed " + EMOJI + EMOJI;
+		changedItems[25] = "x".repeat(CHUNK_SIZE * 3) + EMOJI;
+		String changedHtml = page(changedItems).replace("<li>item 30</li>", "");
+		executor.document = changedHtml;
+
+		File diffFile = new File(tempDir, "changed.diff.gz");
+		DomSnapshotter.DiffResult diff = snapshotter.captureDiff(baseline, diffFile);
+		assertTrue(diff.copiedTokens() > diff.changedTokens());
+		assertEquals(changedHtml, restore(baselineFile, diffFile));
+	}
+
+	@Test
+	void diffsAgainstLoadedBaseline() throws IOException {
+		String baselineHtml = page(items(20));
+		FakeExecutor executor = new FakeExecutor(baselineHtml);
+		DomSnapshotter snapshotter = new DomSnapshotter(executor, CHUNK_SIZE);
+
+		File baselineFile = new File(tempDir, "baseline.html.gz");
+		DomSnapshotter.Baseline captured = snapshotter.captureBaseline(baselineFile);
+		DomSnapshotter.Baseline loaded = DomSnapshotter.Baseline.load(baselineFile);
+		assertEquals(captured.getTokenCount(), loaded.getTokenCount());
+
+		String changedHtml = page(items(21)).replace("item 7", "item " + EMOJI);
+		executor.document = changedHtml;
+		File diffFile = new File(tempDir, "changed.diff.gz");
+		snapshotter.captureDiff(loaded, diffFile);
+		assertEquals(changedHtml, restore(baselineFile, diffFile));
+	}
+
+	@Test
+	void cleanupFailureKeepsOriginalError() {
+		FakeExecutor executor = new FakeExecutor(page(items(5)));
+		executor.dropDom = true;
+		executor.failCleanup = true;
+		DomSnapshotter snapshotter = new DomSnapshotter(executor, CHUNK_SIZE);
+
+		assertThrows(IOException.class, () -> snapshotter.captureBaseline(new File(tempDir, "baseline.html.gz")));
+	}
+}